@@ -5,6 +5,11 @@ import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.net.URL;
 import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.Charset;
+import java.util.concurrent.CompletableFuture;
 
 import javax.net.ssl.HttpsURLConnection;
 
@@ -25,6 +30,10 @@ public final class GoogleTranslator extends Translator {
 	private static final String SERVICE_URL = "https://translate.google.ru/translate_a/t?client=x";
 	private static final String TRANSLATION_LABEL = "sentences";
 	private static final String SENTENCE_TRANSLATION_LABEL = "trans";
+	private static final String ENGINE_NAME = "Google";
+	private static final String USER_AGENT = "Mozilla/4.0 (compatible; MSIE 6.0; Windows NT 5.0)";
+	private static final HttpClient httpClient = HttpClient.newBuilder()
+			.followRedirects(HttpClient.Redirect.NORMAL).build();
 	private static GoogleTranslator instance;
 	
 	private GoogleTranslator() {
@@ -54,6 +63,76 @@ public final class GoogleTranslator extends Translator {
 	public static String execute(final String text, final Language from,
 			final Language to) throws Exception {
 		validateServiceState(text);
+		final URL url = buildServiceUrl(text, from, to);
+		return retrievePropArrString(url, TRANSLATION_LABEL).trim();
+	}
+
+	/**
+	 * Translates text from a given Language to another given Language using
+	 * Google without blocking the calling thread. Cancelling the returned
+	 * future aborts the request on JDK 16 and later; on earlier JDKs the
+	 * request runs to its end and its response is ignored.
+	 * 
+	 * @param text
+	 *            The String to translate.
+	 * @param from
+	 *            The language code to translate from.
+	 * @param to
+	 *            The language code to translate to.
+	 * @return The future translated String, completed exceptionally with
+	 *         {@link TranslationException} on error.
+	 */
+	public static CompletableFuture<String> executeAsync(final String text,
+			final Language from, final Language to) {
+		final CompletableFuture<String> translation = new CompletableFuture<String>();
+		final HttpRequest request;
+		try {
+			validateServiceState(text);
+			request = HttpRequest
+					.newBuilder(buildServiceUrl(text, from, to).toURI())
+					.header("Content-Type", "text/plain; charset=" + ENCODING)
+					.header("User-Agent", USER_AGENT)
+					.header("Accept-Charset", ENCODING).GET().build();
+		} catch (Exception e) {
+			translation.completeExceptionally(new TranslationException(
+					ENGINE_NAME, String.valueOf(e.getMessage()), e));
+			return translation;
+		}
+		final CompletableFuture<HttpResponse<String>> response = httpClient
+				.sendAsync(request, HttpResponse.BodyHandlers.ofString(Charset
+						.forName(ENCODING)));
+		response.whenComplete((httpResponse, error) -> {
+			if (error != null) {
+				translation.completeExceptionally(new TranslationException(
+						ENGINE_NAME, "Error calling Google API", error));
+				return;
+			}
+			// stripping the Unicode Zero-width Non-breaking Space as for
+			// blocking calls
+			final String result = httpResponse.body().replace("\uFEFF", "");
+			if (httpResponse.statusCode() != 200) {
+				translation.completeExceptionally(new TranslationException(
+						ENGINE_NAME, "Error from Google API: " + result));
+				return;
+			}
+			try {
+				translation.complete(concatTranslations(result,
+						TRANSLATION_LABEL).trim());
+			} catch (Exception e) {
+				translation.completeExceptionally(new TranslationException(
+						ENGINE_NAME, "Error parsing Google API response", e));
+			}
+		});
+		translation.whenComplete((translatedText, error) -> {
+			if (error != null) {
+				response.cancel(true);
+			}
+		});
+		return translation;
+	}
+
+	private static URL buildServiceUrl(final String text, final Language from,
+			final Language to) throws Exception {
 		String params = PARAM_LANG_TO
 				+ URLEncoder.encode(to.toString(), ENCODING) + PARAM_TEXT
 				+ URLEncoder.encode(text, ENCODING);
@@ -61,8 +140,7 @@ public final class GoogleTranslator extends Translator {
 			params += PARAM_LANG_FROM
 					+ URLEncoder.encode(from.toString(), ENCODING);
 		}
-		final URL url = new URL(SERVICE_URL + params);
-		return retrievePropArrString(url, TRANSLATION_LABEL).trim();
+		return new URL(SERVICE_URL + params);
 	}
 
 	private static void validateServiceState(final String text)
@@ -86,8 +164,7 @@ public final class GoogleTranslator extends Translator {
 	private static String retrieveResponse(final URL url) throws Exception {
 		final HttpsURLConnection uc = (HttpsURLConnection) url.openConnection();
 		uc.setRequestProperty("Content-Type", "text/plain; charset=" + ENCODING);
-		uc.addRequestProperty("User-Agent",
-				"Mozilla/4.0 (compatible; MSIE 6.0; Windows NT 5.0)");
+		uc.addRequestProperty("User-Agent", USER_AGENT);
 		uc.setRequestProperty("Accept-Charset", ENCODING);
 		uc.setRequestMethod("GET");
 
@@ -123,7 +200,13 @@ public final class GoogleTranslator extends Translator {
 	 */
 	protected static String retrievePropArrString(final URL url,
 			final String jsonValProperty) throws Exception {
-		final String response = retrieveResponse(url);
+		return concatTranslations(retrieveResponse(url), jsonValProperty);
+	}
+
+	// Helper method to concatenate strings of the array with the given label
+	// from a JSON response.
+	private static String concatTranslations(final String response,
+			final String jsonValProperty) throws Exception {
 		String[] translationArr = jsonObjValToStringArr(response,
 				jsonValProperty);
 		String combinedTranslations = "";
@@ -216,8 +299,22 @@ public final class GoogleTranslator extends Translator {
 				Language.fromString(toLanguage));
 	}
 
+	@Override
+	public CompletableFuture<String> translateAsync(String text) {
+		return GoogleTranslator.executeAsync(text, Language.AUTO_DETECT,
+				Language.ENGLISH);
+	}
+
+	@Override
+	public CompletableFuture<String> translateAsync(String text,
+			String fromLanguage, String toLanguage) {
+		return GoogleTranslator.executeAsync(text,
+				Language.fromString(fromLanguage),
+				Language.fromString(toLanguage));
+	}
+
 	@Override
 	public String getEngineName() {
-		return "Google";
+		return ENGINE_NAME;
 	}
 }
@@ -0,0 +1,286 @@
+package opennlp.tools.apps.translation;
+
+import java.text.BreakIterator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Local language identifier based on character n-gram profiles. Each profile
+ * holds n-gram frequencies of a sample text, and sentence language is the one
+ * whose profile gives sentence n-grams the greatest smoothed log-likelihood.
+ * Text language is identified only if all its sentences are identified as
+ * the same language, so text mixing languages or written in a language
+ * without profile is left for remote detection. Profiles are built once from
+ * embedded sample texts and identification results of recent texts are
+ * cached by text hash, so repeated texts are identified once.
+ */
+public class LanguageIdentifier {
+
+	private static final int MAXIMUM_NGRAM_LENGTH = 3;
+	private static final int CACHE_SIZE = 1024;
+
+	// sentences with fewer letters are too short for reliable identification
+	private static final int MINIMUM_LETTERS = 8;
+
+	// sentence is not identified if average log-likelihood of its n-grams for
+	// the closest language exceeds the one for the second closest language
+	// by less than this margin
+	private static final double MINIMUM_LOG_LIKELIHOOD_MARGIN = 0.1;
+
+	// sentence is not identified if less than this share of its trigrams
+	// occurs in the closest language profile; it is likely in a language
+	// without profile, e.g. Polish or Swedish, which otherwise gets the code
+	// of a similar language
+	private static final double MINIMUM_KNOWN_TRIGRAMS_SHARE = 0.25;
+
+	private static final String[][] SAMPLE_TEXTS = {
+		{ "en", "All human beings are born free and equal in dignity and rights. They are endowed with reason and conscience and should act towards one another in a spirit of brotherhood. Everyone has the right to life, liberty and security of person. No one shall be held in slavery or servitude. The weather was fine and we went for a walk through the old town, where the people were selling fresh bread and the children played with their dogs. It was an ordinary day and nothing foretold trouble. We talked for a long time about life, about work and about what was waiting for us ahead. In the evening she called her mother and said that everything was fine. His father worked at a factory, and his mother taught at a village school." },
+		{ "ru", "Все люди рождаются свободными и равными в своем достоинстве и правах. Они наделены разумом и совестью и должны поступать в отношении друг друга в духе братства. Каждый человек имеет право на жизнь, на свободу и на личную неприкосновенность. Никто не должен содержаться в рабстве или в подневольном состоянии. Погода была хорошая, и мы пошли гулять по старому городу, где продавали свежий хлеб, а дети играли со своими собаками. Это был обычный день, ничего не предвещало беды. Мы долго разговаривали о жизни, о работе и о том, что нас ждёт впереди. Вечером она позвонила своей матери и рассказала, что всё хорошо. Его отец работал на заводе, а мать учительствовала в сельской школе." },
+		{ "uk", "Всі люди народжуються вільними і рівними у своїй гідності та правах. Вони наділені розумом і совістю і повинні діяти у відношенні один до одного в дусі братерства. Кожна людина має право на життя, на свободу і на особисту недоторканність. Ніхто не повинен бути в рабстві або в підневільному стані. Погода була гарна, і ми пішли гуляти старим містом, де продавали свіжий хліб, а діти гралися зі своїми собаками. Це був звичайний день, нічого не віщувало біди. Ми довго розмовляли про життя, про роботу і про те, що нас чекає попереду. Увечері вона зателефонувала своїй матері і розповіла, що все добре. Його батько працював на заводі, а мати вчителювала в сільській школі." },
+		{ "de", "Alle Menschen sind frei und gleich an Würde und Rechten geboren. Sie sind mit Vernunft und Gewissen begabt und sollen einander im Geist der Brüderlichkeit begegnen. Jeder hat das Recht auf Leben, Freiheit und Sicherheit der Person. Niemand darf in Sklaverei oder Leibeigenschaft gehalten werden. Das Wetter war schön und wir gingen durch die Altstadt spazieren, wo die Leute frisches Brot verkauften und die Kinder mit ihren Hunden spielten. Es war ein gewöhnlicher Tag, und nichts deutete auf Unheil hin. Wir sprachen lange über das Leben, über die Arbeit und darüber, was uns erwartet. Am Abend rief sie ihre Mutter an und erzählte, dass alles gut sei. Sein Vater arbeitete in einer Fabrik, und seine Mutter unterrichtete an einer Dorfschule." },
+		{ "fr", "Tous les êtres humains naissent libres et égaux en dignité et en droits. Ils sont doués de raison et de conscience et doivent agir les uns envers les autres dans un esprit de fraternité. Tout individu a droit à la vie, à la liberté et à la sûreté de sa personne. Nul ne sera tenu en esclavage ni en servitude. Il faisait beau et nous nous sommes promenés dans la vieille ville, où les gens vendaient du pain frais et les enfants jouaient avec leurs chiens. C'était une journée ordinaire et rien ne laissait présager le malheur. Nous avons longtemps parlé de la vie, du travail et de ce qui nous attendait. Le soir, elle a appelé sa mère et lui a dit que tout allait bien. Son père travaillait dans une usine et sa mère enseignait dans une école de village." },
+		{ "es", "Todos los seres humanos nacen libres e iguales en dignidad y derechos y, dotados como están de razón y conciencia, deben comportarse fraternalmente los unos con los otros. Todo individuo tiene derecho a la vida, a la libertad y a la seguridad de su persona. Nadie estará sometido a esclavitud ni a servidumbre. Hacía buen tiempo y fuimos a pasear por el casco antiguo, donde la gente vendía pan fresco y los niños jugaban con sus perros. Era un día normal y nada presagiaba la desgracia. Hablamos mucho tiempo sobre la vida, sobre el trabajo y sobre lo que nos esperaba. Por la tarde ella llamó a su madre y le dijo que todo estaba bien. Su padre trabajaba en una fábrica y su madre enseñaba en una escuela del pueblo." },
+		{ "it", "Tutti gli esseri umani nascono liberi ed eguali in dignità e diritti. Essi sono dotati di ragione e di coscienza e devono agire gli uni verso gli altri in spirito di fratellanza. Ogni individuo ha diritto alla vita, alla libertà ed alla sicurezza della propria persona. Nessun individuo potrà essere tenuto in stato di schiavitù o di servitù. Faceva bel tempo e siamo andati a passeggiare per il centro storico, dove la gente vendeva pane fresco e i bambini giocavano con i loro cani. Era una giornata normale e niente faceva presagire la disgrazia. Abbiamo parlato a lungo della vita, del lavoro e di ciò che ci aspettava. La sera lei ha chiamato sua madre e le ha detto che andava tutto bene. Suo padre lavorava in una fabbrica e sua madre insegnava in una scuola di paese." }
+	};
+
+	private static LanguageIdentifier instance;
+
+	// replaced as a whole on change, so it is read without locking
+	private volatile Map<String, Profile> profiles = new LinkedHashMap<String, Profile>();
+
+	// identified languages by 64-bit text hash, least recently used are
+	// evicted; texts themselves are not kept
+	private final Map<Long, String> cache = new LinkedHashMap<Long, String>(
+			16, 0.75f, true) {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<Long, String> eldest) {
+			return size() > CACHE_SIZE;
+		}
+	};
+
+	private LanguageIdentifier() {
+		for (String[] sample : SAMPLE_TEXTS) {
+			addProfile(sample[0], sample[1]);
+		}
+	}
+
+	public static synchronized LanguageIdentifier getInstance() {
+		if (instance == null) {
+			instance = new LanguageIdentifier();
+		}
+		return instance;
+	}
+
+	/**
+	 * Adds or replaces profile of a language.
+	 *
+	 * @param language
+	 *            language code, e.g. "en"
+	 * @param trainingText
+	 *            text in this language
+	 */
+	public void addProfile(String language, String trainingText) {
+		Profile profile = new Profile(countNgrams(trainingText));
+		synchronized (cache) {
+			Map<String, Profile> changedProfiles = new LinkedHashMap<String, Profile>(
+					profiles);
+			changedProfiles.put(language, profile);
+			profiles = changedProfiles;
+			cache.clear();
+		}
+	}
+
+	/**
+	 * Identifies language of text.
+	 *
+	 * @param text
+	 * @return language code or null if language of some text sentence can
+	 *         not be identified reliably or sentences are in different
+	 *         languages
+	 */
+	public String identify(String text) {
+		Long key = hash(text);
+		Map<String, Profile> currentProfiles;
+		synchronized (cache) {
+			if (cache.containsKey(key)) {
+				return cache.get(key);
+			}
+			currentProfiles = profiles;
+		}
+		String language = identifyUncached(text, currentProfiles);
+		synchronized (cache) {
+			// result is not cached if profiles were changed meanwhile
+			if (currentProfiles == profiles) {
+				cache.put(key, language);
+			}
+		}
+		return language;
+	}
+
+	// 64-bit FNV-1a hash, collisions are negligible for the cache size
+	private static long hash(String text) {
+		long hash = 0xcbf29ce484222325L;
+		for (int i = 0; i < text.length(); i++) {
+			hash ^= text.charAt(i);
+			hash *= 0x100000001b3L;
+		}
+		return hash;
+	}
+
+	private static String identifyUncached(String text,
+			Map<String, Profile> profiles) {
+		String language = null;
+		BreakIterator sentences = BreakIterator.getSentenceInstance(Locale.ROOT);
+		sentences.setText(text);
+		int start = sentences.first();
+		for (int end = sentences.next(); end != BreakIterator.DONE; end = sentences
+				.next()) {
+			Map<String, Integer> ngrams = countNgrams(text.substring(start, end));
+			start = end;
+			// sentences without letters, e.g. numbers, are skipped
+			if (!ngrams.isEmpty()) {
+				String sentenceLanguage = identifySentence(ngrams, profiles);
+				if (sentenceLanguage == null
+						|| (language != null && !language.equals(sentenceLanguage))) {
+					return null;
+				}
+				language = sentenceLanguage;
+			}
+		}
+		return language;
+	}
+
+	private static String identifySentence(Map<String, Integer> ngrams,
+			Map<String, Profile> profiles) {
+		int letters = 0;
+		for (Map.Entry<String, Integer> ngram : ngrams.entrySet()) {
+			if (ngram.getKey().length() == 1) {
+				letters += ngram.getValue();
+			}
+		}
+		if (letters < MINIMUM_LETTERS) {
+			return null;
+		}
+		int ngramsCount = 0;
+		for (int count : ngrams.values()) {
+			ngramsCount += count;
+		}
+		String closestLanguage = null;
+		double closestLikelihood = Double.NEGATIVE_INFINITY;
+		double secondClosestLikelihood = Double.NEGATIVE_INFINITY;
+		for (Map.Entry<String, Profile> profile : profiles.entrySet()) {
+			double likelihood = profile.getValue().logLikelihood(ngrams)
+					/ ngramsCount;
+			if (likelihood > closestLikelihood) {
+				secondClosestLikelihood = closestLikelihood;
+				closestLikelihood = likelihood;
+				closestLanguage = profile.getKey();
+			} else if (likelihood > secondClosestLikelihood) {
+				secondClosestLikelihood = likelihood;
+			}
+		}
+		if (closestLikelihood - secondClosestLikelihood < MINIMUM_LOG_LIKELIHOOD_MARGIN) {
+			return null;
+		}
+		if (profiles.get(closestLanguage).knownShare(ngrams, 3) < MINIMUM_KNOWN_TRIGRAMS_SHARE) {
+			return null;
+		}
+		return closestLanguage;
+	}
+
+	/**
+	 * Counts n-grams of words padded with spaces.
+	 */
+	private static Map<String, Integer> countNgrams(String text) {
+		Map<String, Integer> counts = new HashMap<String, Integer>();
+		for (String word : normalize(text).split(" ")) {
+			if (word.isEmpty()) {
+				continue;
+			}
+			String padded = " " + word + " ";
+			for (int n = 1; n <= MAXIMUM_NGRAM_LENGTH; n++) {
+				for (int i = 0; i + n <= padded.length(); i++) {
+					String ngram = padded.substring(i, i + n);
+					if (ngram.equals(" ")) {
+						continue;
+					}
+					Integer count = counts.get(ngram);
+					counts.put(ngram, count == null ? 1 : count + 1);
+				}
+			}
+		}
+		return counts;
+	}
+
+	// lower case letters separated by single spaces
+	private static String normalize(String text) {
+		StringBuilder normalized = new StringBuilder(text.length());
+		boolean space = true;
+		for (int i = 0; i < text.length(); i++) {
+			char c = text.charAt(i);
+			if (Character.isLetter(c)) {
+				normalized.append(c);
+				space = false;
+			} else if (!space) {
+				normalized.append(' ');
+				space = true;
+			}
+		}
+		return normalized.toString().toLowerCase(Locale.ROOT).trim();
+	}
+
+	/**
+	 * N-gram frequencies of a language with add-one smoothing made separately
+	 * for each n-gram length.
+	 */
+	private static class Profile {
+		private final Map<String, Integer> counts;
+		private final double[] logDenominators = new double[MAXIMUM_NGRAM_LENGTH + 1];
+
+		Profile(Map<String, Integer> counts) {
+			this.counts = counts;
+			int[] totals = new int[MAXIMUM_NGRAM_LENGTH + 1];
+			int[] distinct = new int[MAXIMUM_NGRAM_LENGTH + 1];
+			for (Map.Entry<String, Integer> ngram : counts.entrySet()) {
+				totals[ngram.getKey().length()] += ngram.getValue();
+				distinct[ngram.getKey().length()]++;
+			}
+			for (int n = 1; n <= MAXIMUM_NGRAM_LENGTH; n++) {
+				// one more distinct n-gram stands for all unseen ones
+				logDenominators[n] = Math.log(totals[n] + distinct[n] + 1);
+			}
+		}
+
+		double logLikelihood(Map<String, Integer> ngrams) {
+			double logLikelihood = 0.0;
+			for (Map.Entry<String, Integer> ngram : ngrams.entrySet()) {
+				Integer count = counts.get(ngram.getKey());
+				logLikelihood += ngram.getValue()
+						* (Math.log(count == null ? 1 : count + 1) - logDenominators[ngram
+								.getKey().length()]);
+			}
+			return logLikelihood;
+		}
+
+		/**
+		 * @return share of n-grams of the given length which occur in the
+		 *         profile
+		 */
+		double knownShare(Map<String, Integer> ngrams, int length) {
+			int total = 0, known = 0;
+			for (Map.Entry<String, Integer> ngram : ngrams.entrySet()) {
+				if (ngram.getKey().length() == length) {
+					total += ngram.getValue();
+					if (counts.containsKey(ngram.getKey())) {
+						known += ngram.getValue();
+					}
+				}
+			}
+			return total == 0 ? 0.0 : (double) known / total;
+		}
+	}
+}
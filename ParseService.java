@@ -0,0 +1,206 @@
+package opennlp.tools.apps.translation;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import opennlp.tools.parse_thicket.ParseCorefsBuilder;
+import opennlp.tools.parse_thicket.ParseThicket;
+
+import edu.stanford.nlp.pipeline.StanfordCoreNLP;
+
+/**
+ * Builds parse thickets in parallel. {@link ParseCorefsBuilder} keeps parsing
+ * state in the instance, so the shared instance parses one text at a time.
+ * This service keeps a pool of parser instances, sized to available cores and
+ * memory, and spreads texts over them with a work-stealing
+ * {@link ForkJoinPool}. The shared instance is the first parser of the pool,
+ * so a pool of one parser loads no models beyond it, and the other parsers
+ * have their own CoreNLP annotators. The shared instance must not be used
+ * elsewhere while texts are parsed by the pool.
+ * <p>
+ * The service parses translations and their sentences. Parsing done by
+ * {@link opennlp.tools.parse_thicket.matching.Matcher} while assessing
+ * similarity still runs on the shared instance.
+ */
+public class ParseService {
+
+	// approximate heap used by one parser instance with loaded models
+	private static final long PARSER_MEMORY_FOOTPRINT = 1536L * 1024 * 1024;
+
+	private static ParseService instance;
+
+	private final int poolSize;
+	private final ForkJoinPool forkJoinPool;
+	private final BlockingQueue<ParseCorefsBuilder> idleParsers = new LinkedBlockingQueue<ParseCorefsBuilder>();
+	private final AtomicInteger createdParsers = new AtomicInteger();
+
+	/**
+	 * @param poolSize
+	 *            maximal number of parser instances and parallel parses
+	 */
+	public ParseService(int poolSize) {
+		if (poolSize < 1) {
+			throw new IllegalArgumentException(
+					"Parser pool size must be positive: " + poolSize);
+		}
+		this.poolSize = poolSize;
+		this.forkJoinPool = new ForkJoinPool(poolSize);
+	}
+
+	public static synchronized ParseService getInstance() {
+		if (instance == null) {
+			instance = new ParseService(getDefaultPoolSize());
+		}
+		return instance;
+	}
+
+	/**
+	 * @return number of available cores limited by number of parsers,
+	 *         including the shared instance, which fit into maximal heap
+	 */
+	public static int getDefaultPoolSize() {
+		int cores = Runtime.getRuntime().availableProcessors();
+		long parsersInMemory = Runtime.getRuntime().maxMemory()
+				/ PARSER_MEMORY_FOOTPRINT;
+		return (int) Math.max(1, Math.min(cores, parsersInMemory));
+	}
+
+	public int getPoolSize() {
+		return poolSize;
+	}
+
+	/**
+	 * Builds parse thicket of text with one of pooled parsers. Blocks while
+	 * all parsers are busy.
+	 *
+	 * @param text
+	 * @return parse thicket
+	 */
+	public ParseThicket buildParseThicket(String text) {
+		ParseCorefsBuilder parser = acquireParser();
+		try {
+			return parser.buildParseThicket(text);
+		} finally {
+			idleParsers.add(parser);
+		}
+	}
+
+	/**
+	 * Builds parse thickets of texts in parallel.
+	 *
+	 * @param texts
+	 * @return parse thickets in the order of texts
+	 */
+	public List<ParseThicket> buildParseThickets(List<String> texts) {
+		ParseThicket[] results = new ParseThicket[texts.size()];
+		if (results.length > 0) {
+			forkJoinPool.invoke(new ParseTask(texts, results, 0,
+					results.length));
+		}
+		return new ArrayList<ParseThicket>(Arrays.asList(results));
+	}
+
+	/**
+	 * Creates all parsers of the pool in advance, e.g. before benchmarking.
+	 */
+	public void warmUp() {
+		List<ParseCorefsBuilder> parsers = new ArrayList<ParseCorefsBuilder>();
+		for (int i = 0; i < poolSize; i++) {
+			parsers.add(acquireParser());
+		}
+		idleParsers.addAll(parsers);
+	}
+
+	/**
+	 * Stops parallel parsing threads.
+	 */
+	public void shutdown() {
+		forkJoinPool.shutdown();
+	}
+
+	private ParseCorefsBuilder acquireParser() {
+		ParseCorefsBuilder parser = idleParsers.poll();
+		if (parser != null) {
+			return parser;
+		}
+		int created = createdParsers.incrementAndGet();
+		if (created <= poolSize) {
+			return newParser(created == 1);
+		}
+		createdParsers.decrementAndGet();
+		try {
+			return idleParsers.take();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException(
+					"Interrupted while waiting for parser", e);
+		}
+	}
+
+	private ParseCorefsBuilder newParser(boolean first) {
+		try {
+			return first ? ParseCorefsBuilder.getInstance()
+					: newIndependentParser();
+		} catch (RuntimeException e) {
+			createdParsers.decrementAndGet();
+			throw e;
+		}
+	}
+
+	/**
+	 * Creates parser with its own annotators. StanfordCoreNLP caches
+	 * annotators in a static pool and gives the same instances to pipelines
+	 * with the same properties, while the coreference annotator keeps state
+	 * of the document being resolved. So the annotator pool is cleared before
+	 * and after the parser is built; pipelines already built keep their
+	 * annotators, ones built later load their own. Holding the StanfordCoreNLP
+	 * lock keeps pipelines of other code from being built meanwhile.
+	 */
+	private static ParseCorefsBuilder newIndependentParser() {
+		synchronized (StanfordCoreNLP.class) {
+			StanfordCoreNLP.clearAnnotatorPool();
+			try {
+				return new ParseCorefsBuilder() {
+				};
+			} finally {
+				StanfordCoreNLP.clearAnnotatorPool();
+			}
+		}
+	}
+
+	/**
+	 * Parses range of texts splitting it in halves, so idle workers steal
+	 * the remaining halves from busy ones.
+	 */
+	private class ParseTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+
+		private final List<String> texts;
+		private final ParseThicket[] results;
+		private final int from, to;
+
+		ParseTask(List<String> texts, ParseThicket[] results, int from, int to) {
+			this.texts = texts;
+			this.results = results;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected void compute() {
+			if (to - from == 1) {
+				results[from] = buildParseThicket(texts.get(from));
+				return;
+			}
+			int middle = (from + to) >>> 1;
+			invokeAll(new ParseTask(texts, results, from, middle),
+					new ParseTask(texts, results, middle, to));
+		}
+	}
+}
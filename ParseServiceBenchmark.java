@@ -0,0 +1,76 @@
+package opennlp.tools.apps.translation;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Measures parse throughput of {@link ParseService} for growing parser pool
+ * sizes, from one parser up to the default pool size.
+ */
+public class ParseServiceBenchmark {
+
+	private static final String[] SENTENCES = {
+			"The owners of music rights are unhappy that the anti-piracy laws adopted and developed in Russia do not provide for a tough fight against counterfeit music.",
+			"Having got acquainted a little, my new fellow traveler and I knocked back a glass.",
+			"These guys began to mock our stupid attempts to get out of the situation.",
+			"The chief state sanitary doctor of Russia urged Russians to give up sushi.",
+			"The last course in order, but not in importance, is algorithms and data structures for search.",
+			"The amnesty will affect those who are sentenced to up to five years inclusive.",
+			"Exceptions and the stack unwinding associated with them are one of the most pleasant techniques.",
+			"Exception handling is intuitively consistent with the block structure of the program.",
+			"Externally, exception handling seems very logical and natural." };
+
+	/**
+	 * @param args
+	 *            optional number of times the sample sentences are repeated
+	 */
+	public static void main(String[] args) {
+		int repeats = args.length > 0 ? Integer.parseInt(args[0]) : 10;
+		List<String> texts = new ArrayList<String>();
+		for (int i = 0; i < repeats; i++) {
+			for (String sentence : SENTENCES) {
+				texts.add(sentence);
+			}
+		}
+		int maximumPoolSize = ParseService.getDefaultPoolSize();
+		System.out.println(String.format(
+				"Parsing %d sentences, cores: %d, maximal pool size: %d",
+				texts.size(), Runtime.getRuntime().availableProcessors(),
+				maximumPoolSize));
+
+		// powers of two and the maximal pool size itself
+		List<Integer> poolSizes = new ArrayList<Integer>();
+		for (int poolSize = 1; poolSize < maximumPoolSize; poolSize *= 2) {
+			poolSizes.add(poolSize);
+		}
+		poolSizes.add(maximumPoolSize);
+
+		double singleParserThroughput = 0.0;
+		for (int poolSize : poolSizes) {
+			double throughput = measureThroughput(poolSize, texts);
+			if (poolSize == 1) {
+				singleParserThroughput = throughput;
+			}
+			System.out.println(String.format(
+					"pool size %2d: %8.2f sentences/s, speedup %5.2f",
+					poolSize, throughput, throughput / singleParserThroughput));
+		}
+	}
+
+	private static double measureThroughput(int poolSize, List<String> texts) {
+		ParseService service = new ParseService(poolSize);
+		try {
+			// models are loaded and parsers are warmed up outside of
+			// measurement
+			service.warmUp();
+			service.buildParseThickets(texts.subList(0,
+					Math.min(texts.size(), poolSize * 2)));
+			long start = System.nanoTime();
+			service.buildParseThickets(texts);
+			long elapsed = System.nanoTime() - start;
+			return texts.size() / (elapsed / 1e9);
+		} finally {
+			service.shutdown();
+		}
+	}
+}
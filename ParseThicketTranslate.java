@@ -2,26 +2,20 @@ package opennlp.tools.apps.translation;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
-import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Logger;
 
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
-import javax.xml.transform.Transformer;
-import javax.xml.transform.TransformerFactory;
-import javax.xml.transform.dom.DOMSource;
-import javax.xml.transform.stream.StreamResult;
-
-import org.w3c.dom.Document;
-import org.w3c.dom.Element;
-import org.w3c.dom.ProcessingInstruction;
-
-import opennlp.tools.parse_thicket.ParseCorefsBuilder;
+import opennlp.tools.apps.translation.TranslationResult.EngineTranslation;
+import opennlp.tools.apps.translation.TranslationResult.PhraseResult;
+import opennlp.tools.apps.translation.TranslationResult.SentenceResult;
+import opennlp.tools.apps.translation.TranslationResult.Suggestion;
 import opennlp.tools.parse_thicket.ParseThicket;
 import opennlp.tools.parse_thicket.apps.SnippetToParagraph;
 import opennlp.tools.parse_thicket.matching.Matcher;
@@ -67,6 +61,12 @@ public class ParseThicketTranslate {
 	// would be suggested like improvements
 	private static double suggestionRelativeSimilarityThreshold = 0.1;
 
+	// only this number of best suggestions is kept for each phrase
+	private static int maximumSuggestionsCount = 10;
+
+	// text translation by an engine fails if it is not done in this time
+	private static long translationTimeoutSeconds = 60;
+
 	private static List<String> getHitbaseSentencesForTesting(
 			HitBase searchResult) throws IOException {
 		if (searchResult.getUrl().endsWith(".pdf")) {
@@ -86,21 +86,23 @@ public class ParseThicketTranslate {
 	}
 
 	/**
-	 * If phrase is meaningless returns map of suggestions for improved
+	 * If phrase is meaningless returns the best suggestions for improved
 	 * translation and their relative similarity scores. If phrase is meaningful
-	 * returns list with proof of phrase meaningfulness.
+	 * returns single proof of phrase meaningfulness.
 	 * 
 	 * @param phrase
-	 * @return suggestions for improved translation list
+	 * @return suggestions for improved translation, at most
+	 *         maximumSuggestionsCount
 	 */
-	public static Map<String, Double> suggestPhraseImprovedTranslations(
+	public static SuggestionCollector suggestPhraseImprovedTranslations(
 			String phrase) {
-		Map<String, Double> suggestions = new HashMap<String, Double>();
+		SuggestionCollector suggestions = new SuggestionCollector(
+				maximumSuggestionsCount);
 		List<HitBase> quotedSearchResults = searchRunner.runSearch(
 				String.format("\"%s\"", phrase), 1);
 
 		if (quotedSearchResults.size() > 0) {
-			suggestions.put(quotedSearchResults.get(0).getAbstractText(), 1.0);
+			suggestions.offer(quotedSearchResults.get(0).getAbstractText(), 1.0);
 			return suggestions;
 		}
 
@@ -119,11 +121,11 @@ public class ParseThicketTranslate {
 							/ selfScore;
 					if (relativeScore > meaningfulnessRelativeSimilarityThreshold) {
 						suggestions.clear();
-						suggestions.put(sentence, relativeScore);
+						suggestions.offer(sentence, relativeScore);
 						return suggestions;
 					}
 					if (relativeScore > suggestionRelativeSimilarityThreshold) {
-						suggestions.put(sentence, relativeScore);
+						suggestions.offer(sentence, relativeScore);
 					}
 				}
 			} catch (IOException e) {
@@ -160,15 +162,12 @@ public class ParseThicketTranslate {
 	 * meaningfulness testing. Such list includes all the phrases which contain
 	 * at least two sub-phrases.
 	 * 
-	 * @param sentence
+	 * @param t
+	 *            parse tree of sentence
 	 * @return list of phrases containing at least two sub-phrases
 	 */
-	private static List<Tree> formPhrasesForMeaningfulnessTesting(
-			String sentence) {
+	private static List<Tree> formPhrasesForMeaningfulnessTesting(Tree t) {
 		List<Tree> results = new LinkedList<Tree>();
-		ParseCorefsBuilder ptBuilder = ParseCorefsBuilder.getInstance();
-		ParseThicket pt = ptBuilder.buildParseThicket(sentence);
-		Tree t = pt.getSentences().get(0);
 		int sentenceWordCount = wordCount(t);
 		int minimumWords = Math.max(
 				(int) Math.ceil(sentenceWordCount
@@ -256,6 +255,33 @@ public class ParseThicketTranslate {
 		ParseThicketTranslate.suggestionRelativeSimilarityThreshold = suggestionRelativeSimilarityThreshold;
 	}
 
+	public static int getMaximumSuggestionsCount() {
+		return maximumSuggestionsCount;
+	}
+
+	public static void setMaximumSuggestionsCount(int maximumSuggestionsCount) {
+		if (maximumSuggestionsCount < 1) {
+			throw new IllegalArgumentException(
+					"Maximum suggestions count must be positive: "
+							+ maximumSuggestionsCount);
+		}
+		ParseThicketTranslate.maximumSuggestionsCount = maximumSuggestionsCount;
+	}
+
+	public static long getTranslationTimeoutSeconds() {
+		return translationTimeoutSeconds;
+	}
+
+	public static void setTranslationTimeoutSeconds(
+			long translationTimeoutSeconds) {
+		if (translationTimeoutSeconds < 1) {
+			throw new IllegalArgumentException(
+					"Translation timeout must be positive: "
+							+ translationTimeoutSeconds);
+		}
+		ParseThicketTranslate.translationTimeoutSeconds = translationTimeoutSeconds;
+	}
+
 	/**
 	 * Static initialization block.
 	 */
@@ -277,63 +303,75 @@ public class ParseThicketTranslate {
 	}
 
 	/**
-	 * Creates XML containing meaningfulness testing results for multi-sentence
-	 * text.
+	 * Tests meaningfulness of phrases in translations of multi-sentence text
+	 * made by all available translators.
 	 * 
 	 * @param text
 	 *            Text for translation
-	 * @param filename
-	 *            filename for result XML
+	 * @return meaningfulness testing results
 	 */
-	public static void saveMeaningfulnessTestingResultsAsXML(String text,
-			String filename) throws Exception {
-		DocumentBuilderFactory docFactory = DocumentBuilderFactory
-				.newInstance();
-		DocumentBuilder docBuilder = docFactory.newDocumentBuilder();
-		Document doc = docBuilder.newDocument();
-		Element textTranslationElement = doc.createElement("text-translation");
-		Element textOriginalElement = doc.createElement("original-text");
-		textOriginalElement.appendChild(doc.createTextNode(text));
-		textTranslationElement.appendChild(textOriginalElement);
-		doc.appendChild(textTranslationElement);
-		ProcessingInstruction pi = doc.createProcessingInstruction(
-				"xml-stylesheet", "type=\"text/xsl\" href=\"translation.xsl\"");
-		doc.insertBefore(pi, textTranslationElement);
-
-		for (Translator translator : getAvailableTranslators()) {
-
-			String translatedText = translator.translate(text);
-			ParseCorefsBuilder ptBuilder = ParseCorefsBuilder.getInstance();
-			ParseThicket pt = ptBuilder.buildParseThicket(translatedText);
-
-			Element translationElement = doc.createElement("translation");
-			translationElement.setAttribute("engine",
-					translator.getEngineName());
-			textTranslationElement.appendChild(translationElement);
-			Element translatedTextElement = doc
-					.createElement("translated-text");
-			translatedTextElement.appendChild(doc
-					.createTextNode(translatedText));
-			textTranslationElement.appendChild(translatedTextElement);
-			List<String> shortMeaninglessPhrases = new LinkedList<String>();
+	public static TranslationResult testMeaningfulness(String text)
+			throws Exception {
+		TranslationResult result = new TranslationResult(text);
+		// language is identified once for all engines, null means engines
+		// should detect it themselves, e.g. when text mixes languages; text
+		// is not sent for translation only if all its sentences are English
+		String textLanguage = LanguageIdentifier.getInstance().identify(text);
+		LOG.info(String.format("Text language: %s", textLanguage));
+		List<Translator> translators = getAvailableTranslators();
+		// all engines translate at the same time, so text waits for the
+		// slowest engine rather than for all of them in turn
+		List<CompletableFuture<String>> translations = new ArrayList<CompletableFuture<String>>();
+		for (Translator translator : translators) {
+			translations.add(translator.translateAsync(text, textLanguage,
+					translationTimeoutSeconds, TimeUnit.SECONDS));
+		}
+		List<String> translatedTexts = new ArrayList<String>();
+		try {
+			for (CompletableFuture<String> translation : translations) {
+				translatedTexts.add(translation.get());
+			}
+		} catch (ExecutionException e) {
+			// the first failed engine fails the text, as sequential
+			// translation did
+			if (e.getCause() instanceof Exception) {
+				throw (Exception) e.getCause();
+			}
+			throw e;
+		} finally {
+			// translations still running after failure are not needed
+			for (CompletableFuture<String> translation : translations) {
+				translation.cancel(true);
+			}
+		}
+		ParseService parseService = ParseService.getInstance();
+		List<ParseThicket> translatedTextThickets = parseService
+				.buildParseThickets(translatedTexts);
+
+		for (int i = 0; i < translators.size(); i++) {
+			String translatedText = translatedTexts.get(i);
+			ParseThicket pt = translatedTextThickets.get(i);
+
+			EngineTranslation translation = result.addTranslation(
+					translators.get(i).getEngineName(), translatedText);
+			List<String> sentenceTranslations = new ArrayList<String>();
 			for (Tree tree : pt.getSentences()) {
-				String sentenceTranslation = Sentence
-						.listToString(tree.yield());
+				sentenceTranslations.add(Sentence.listToString(tree.yield()));
+			}
+			// each sentence is parsed once more on its own for phrase
+			// extraction, all sentences in parallel
+			List<ParseThicket> sentenceThickets = parseService
+					.buildParseThickets(sentenceTranslations);
+			List<String> shortMeaninglessPhrases = new LinkedList<String>();
+			for (int j = 0; j < sentenceTranslations.size(); j++) {
+				Tree tree = pt.getSentences().get(j);
+				String sentenceTranslation = sentenceTranslations.get(j);
 				shortMeaninglessPhrases.clear();
-				Element sentenceElement = doc.createElement("sentence");
-				translationElement.appendChild(sentenceElement);
-
-				Element translatedSentenceElement = doc
-						.createElement("translated-sentence");
-				translatedSentenceElement.appendChild(doc
-						.createTextNode(sentenceTranslation));
-				sentenceElement.appendChild(translatedSentenceElement);
-				
-				Element sentencePennElement = doc.createElement("sentence-penn-string");
-				sentencePennElement.appendChild(doc.createTextNode(tree.pennString()));
-				sentenceElement.appendChild(sentencePennElement);
-				
-				List<Tree> phrasesForTesting = formPhrasesForMeaningfulnessTesting(sentenceTranslation);
+				SentenceResult sentence = translation.addSentence(
+						sentenceTranslation, tree.pennString());
+
+				List<Tree> phrasesForTesting = formPhrasesForMeaningfulnessTesting(sentenceThickets
+						.get(j).getSentences().get(0));
 				System.out.println(phrasesForTesting);
 				for (Tree phraseTree : phrasesForTesting) {
 					String phrase = Sentence.listToString(phraseTree.yield());
@@ -347,44 +385,55 @@ public class ParseThicketTranslate {
 					if (containsMeaningless) {
 						continue;
 					}
-					Map<String, Double> suggestions = suggestPhraseImprovedTranslations(phrase);
-					Element phraseElement = doc.createElement("phrase");
-					sentenceElement.appendChild(phraseElement);
-					double randomSuggestionScore = suggestions.values().iterator().next();
-					boolean meaningful = randomSuggestionScore > meaningfulnessRelativeSimilarityThreshold;
-					phraseElement.setAttribute("meaningful", meaningful ? "1" : "0");
+					SuggestionCollector suggestions = suggestPhraseImprovedTranslations(phrase);
+					boolean meaningful = suggestions.getMaxScore() > meaningfulnessRelativeSimilarityThreshold;
 					if (!meaningful && wordCount(phraseTree) <= maximumWordsInPhraseForStopDownTopTraversal) {
 						shortMeaninglessPhrases.add(phrase);
 					}
-					Element translatedPhraseElement = doc
-							.createElement("translated-phrase");
-					translatedPhraseElement.appendChild(doc
-							.createTextNode(phrase));
-					phraseElement.appendChild(translatedPhraseElement);
-					
-					Element phrasePennElement = doc.createElement("phrase-penn-string");
-					phrasePennElement.appendChild(doc.createTextNode(phraseTree.pennString()));
-					sentenceElement.appendChild(phrasePennElement);
-					
-					for (Map.Entry<String, Double> improvement : suggestions
-							.entrySet()) {
-						Element suggestionElement = doc
-								.createElement("suggestion");
-						suggestionElement.appendChild(doc
-								.createTextNode(improvement.getKey()));
-						suggestionElement.setAttribute("relative-score",
-								Double.toString(improvement.getValue()));
-						phraseElement.appendChild(suggestionElement);
+					PhraseResult phraseResult = sentence.addPhrase(phrase,
+							meaningful);
+					for (Suggestion improvement : suggestions.toSortedList()) {
+						phraseResult.addSuggestion(improvement.getText(),
+								improvement.getRelativeScore());
 					}
 				}
 			}
 		}
-		TransformerFactory transformerFactory = TransformerFactory
-				.newInstance();
-		Transformer transformer = transformerFactory.newTransformer();
-		DOMSource source = new DOMSource(doc);
-		StreamResult result = new StreamResult(new File(filename));
-		transformer.transform(source, result);
+		return result;
+	}
+
+	/**
+	 * Creates XML containing meaningfulness testing results for multi-sentence
+	 * text.
+	 * 
+	 * @param text
+	 *            Text for translation
+	 * @param filename
+	 *            filename for result XML
+	 */
+	public static void saveMeaningfulnessTestingResultsAsXML(String text,
+			String filename) throws Exception {
+		TranslationResultXmlConverter.toXml(testMeaningfulness(text),
+				new File(filename));
+	}
+
+	/**
+	 * Saves meaningfulness testing results for multi-sentence text in compact
+	 * binary format, see {@link TranslationResultCodec}.
+	 * 
+	 * @param text
+	 *            Text for translation
+	 * @param filename
+	 *            filename for results
+	 * @param compress
+	 *            whether to gzip results
+	 * @return saved results, e.g. for rendering
+	 */
+	public static TranslationResult saveMeaningfulnessTestingResults(
+			String text, String filename, boolean compress) throws Exception {
+		TranslationResult result = testMeaningfulness(text);
+		TranslationResultCodec.save(result, new File(filename), compress);
+		return result;
 	}
 
 	/**
@@ -407,8 +456,11 @@ public class ParseThicketTranslate {
 				"Внешне, обработка исключений представляется очень логичной и естественной."
 		};
 		for (int i = 0; i < tests.length; i++) {
-			ParseThicketTranslate.saveMeaningfulnessTestingResultsAsXML(
-					tests[i], String.format("test%d.xml", i + 1));
+			TranslationResult result = ParseThicketTranslate
+					.saveMeaningfulnessTestingResults(tests[i],
+							String.format("test%d.ptr.gz", i + 1), true);
+			TranslationResultRenderer.saveAsHtml(result,
+					new File(String.format("test%d.html", i + 1)));
 		}
 
 		// String[] tests = {
@@ -0,0 +1,156 @@
+package opennlp.tools.apps.translation;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import opennlp.tools.apps.translation.TranslationResult.Suggestion;
+
+/**
+ * Keeps only the best K suggestions for improved translation. Suggestions
+ * are held in a min-heap over primitive scores, so a new suggestion either
+ * replaces the worst kept one or is dropped, and memory stays bounded by K
+ * however many sentences are tested.
+ */
+public class SuggestionCollector {
+
+	private final double[] scores;
+	private final String[] texts;
+	private int size;
+	private double maxScore;
+
+	/**
+	 * @param capacity
+	 *            maximal number of suggestions to keep
+	 */
+	public SuggestionCollector(int capacity) {
+		if (capacity < 1) {
+			throw new IllegalArgumentException(
+					"Suggestions capacity must be positive: " + capacity);
+		}
+		scores = new double[capacity];
+		texts = new String[capacity];
+		clear();
+	}
+
+	/**
+	 * Offers suggestion. Suggestion is kept if there is free space or its
+	 * score is greater than the worst kept score. Suggestions with text equal
+	 * to an already kept one are ignored.
+	 *
+	 * @param text
+	 * @param score
+	 * @return whether suggestion was kept
+	 */
+	public boolean offer(String text, double score) {
+		for (int i = 0; i < size; i++) {
+			if (texts[i].equals(text)) {
+				return false;
+			}
+		}
+		if (size < scores.length) {
+			scores[size] = score;
+			texts[size] = text;
+			siftUp(size++);
+		} else if (score > scores[0]) {
+			scores[0] = score;
+			texts[0] = text;
+			siftDown(scores, texts, 0, size);
+		} else {
+			return false;
+		}
+		maxScore = Math.max(maxScore, score);
+		return true;
+	}
+
+	/**
+	 * Removes all kept suggestions.
+	 */
+	public void clear() {
+		for (int i = 0; i < size; i++) {
+			texts[i] = null;
+		}
+		size = 0;
+		maxScore = 0.0;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	public int getCapacity() {
+		return scores.length;
+	}
+
+	/**
+	 * @return maximal score of kept suggestions or 0.0 if there are none
+	 */
+	public double getMaxScore() {
+		return maxScore;
+	}
+
+	/**
+	 * @return kept suggestions ordered by descending score
+	 */
+	public List<Suggestion> toSortedList() {
+		double[] heapScores = new double[size];
+		String[] heapTexts = new String[size];
+		System.arraycopy(scores, 0, heapScores, 0, size);
+		System.arraycopy(texts, 0, heapTexts, 0, size);
+		Suggestion[] sorted = new Suggestion[size];
+		// popping minimums fills the result from its end
+		for (int heapSize = size; heapSize > 0; heapSize--) {
+			sorted[heapSize - 1] = new Suggestion(heapTexts[0], heapScores[0]);
+			heapScores[0] = heapScores[heapSize - 1];
+			heapTexts[0] = heapTexts[heapSize - 1];
+			siftDown(heapScores, heapTexts, 0, heapSize - 1);
+		}
+		List<Suggestion> result = new ArrayList<Suggestion>(size);
+		for (Suggestion suggestion : sorted) {
+			result.add(suggestion);
+		}
+		return result;
+	}
+
+	private void siftUp(int i) {
+		double score = scores[i];
+		String text = texts[i];
+		while (i > 0) {
+			int parent = (i - 1) >>> 1;
+			if (scores[parent] <= score) {
+				break;
+			}
+			scores[i] = scores[parent];
+			texts[i] = texts[parent];
+			i = parent;
+		}
+		scores[i] = score;
+		texts[i] = text;
+	}
+
+	private static void siftDown(double[] scores, String[] texts, int i,
+			int size) {
+		double score = scores[i];
+		String text = texts[i];
+		while (true) {
+			int child = 2 * i + 1;
+			if (child >= size) {
+				break;
+			}
+			if (child + 1 < size && scores[child + 1] < scores[child]) {
+				child++;
+			}
+			if (score <= scores[child]) {
+				break;
+			}
+			scores[i] = scores[child];
+			texts[i] = texts[child];
+			i = child;
+		}
+		scores[i] = score;
+		texts[i] = text;
+	}
+}
@@ -0,0 +1,28 @@
+package opennlp.tools.apps.translation;
+
+/**
+ * Signals failure of a translation made by some machine translation engine.
+ */
+public class TranslationException extends Exception {
+
+	private static final long serialVersionUID = 1L;
+
+	private final String engineName;
+
+	public TranslationException(String engineName, String message,
+			Throwable cause) {
+		super(String.format("[%s] %s", engineName, message), cause);
+		this.engineName = engineName;
+	}
+
+	public TranslationException(String engineName, String message) {
+		this(engineName, message, null);
+	}
+
+	/**
+	 * @return name of engine which failed to translate
+	 */
+	public String getEngineName() {
+		return engineName;
+	}
+}
@@ -0,0 +1,188 @@
+package opennlp.tools.apps.translation;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * In-memory model of meaningfulness testing results for multi-sentence text.
+ * Phrases of a sentence are kept ordered by ascending length and suggestions
+ * of a phrase by descending relative score, so renderers and serializers can
+ * output them as is without sorting on every view.
+ */
+public class TranslationResult {
+
+	private final String originalText;
+	private final List<EngineTranslation> translations = new ArrayList<EngineTranslation>();
+
+	public TranslationResult(String originalText) {
+		this.originalText = originalText;
+	}
+
+	public String getOriginalText() {
+		return originalText;
+	}
+
+	public List<EngineTranslation> getTranslations() {
+		return Collections.unmodifiableList(translations);
+	}
+
+	public EngineTranslation addTranslation(String engine, String translatedText) {
+		EngineTranslation translation = new EngineTranslation(engine,
+				translatedText);
+		translations.add(translation);
+		return translation;
+	}
+
+	/**
+	 * Text translation made by one translator engine.
+	 */
+	public static class EngineTranslation {
+		private final String engine;
+		private final String translatedText;
+		private final List<SentenceResult> sentences = new ArrayList<SentenceResult>();
+
+		private EngineTranslation(String engine, String translatedText) {
+			this.engine = engine;
+			this.translatedText = translatedText;
+		}
+
+		public String getEngine() {
+			return engine;
+		}
+
+		public String getTranslatedText() {
+			return translatedText;
+		}
+
+		public List<SentenceResult> getSentences() {
+			return Collections.unmodifiableList(sentences);
+		}
+
+		public SentenceResult addSentence(String translatedSentence,
+				String pennString) {
+			SentenceResult sentence = new SentenceResult(translatedSentence,
+					pennString);
+			sentences.add(sentence);
+			return sentence;
+		}
+	}
+
+	/**
+	 * Translated sentence with its tested phrases.
+	 */
+	public static class SentenceResult {
+		private final String translatedSentence;
+		private final String pennString;
+		private final List<PhraseResult> phrases = new ArrayList<PhraseResult>();
+
+		private SentenceResult(String translatedSentence, String pennString) {
+			this.translatedSentence = translatedSentence;
+			this.pennString = pennString;
+		}
+
+		public String getTranslatedSentence() {
+			return translatedSentence;
+		}
+
+		public String getPennString() {
+			return pennString;
+		}
+
+		/**
+		 * @return phrases ordered by ascending phrase length
+		 */
+		public List<PhraseResult> getPhrases() {
+			return Collections.unmodifiableList(phrases);
+		}
+
+		/**
+		 * Adds phrase keeping phrases ordered by ascending length. Phrases of
+		 * equal length keep their insertion order.
+		 */
+		public PhraseResult addPhrase(String translatedPhrase,
+				boolean meaningful) {
+			PhraseResult phrase = new PhraseResult(translatedPhrase, meaningful);
+			int position = phrases.size();
+			while (position > 0
+					&& phrases.get(position - 1).getTranslatedPhrase().length() > translatedPhrase
+							.length()) {
+				position--;
+			}
+			phrases.add(position, phrase);
+			return phrase;
+		}
+	}
+
+	/**
+	 * Translated phrase with meaningfulness verdict and suggestions for
+	 * improved translation. Phrase parse tree is not kept, it is a subtree of
+	 * the sentence one.
+	 */
+	public static class PhraseResult {
+		private final String translatedPhrase;
+		private final boolean meaningful;
+		private final List<Suggestion> suggestions = new ArrayList<Suggestion>();
+
+		private PhraseResult(String translatedPhrase, boolean meaningful) {
+			this.translatedPhrase = translatedPhrase;
+			this.meaningful = meaningful;
+		}
+
+		public String getTranslatedPhrase() {
+			return translatedPhrase;
+		}
+
+		public boolean isMeaningful() {
+			return meaningful;
+		}
+
+		/**
+		 * @return suggestions ordered by descending relative score
+		 */
+		public List<Suggestion> getSuggestions() {
+			return Collections.unmodifiableList(suggestions);
+		}
+
+		/**
+		 * Adds suggestion keeping suggestions ordered by descending relative
+		 * score. Suggestions with equal score keep their insertion order.
+		 */
+		public Suggestion addSuggestion(String text, double relativeScore) {
+			Suggestion suggestion = new Suggestion(text, relativeScore);
+			int position = suggestions.size();
+			while (position > 0
+					&& suggestions.get(position - 1).getRelativeScore() < relativeScore) {
+				position--;
+			}
+			suggestions.add(position, suggestion);
+			return suggestion;
+		}
+	}
+
+	/**
+	 * Suggestion for improved phrase translation.
+	 */
+	public static class Suggestion {
+		private final String text;
+		private final double relativeScore;
+
+		public Suggestion(String text, double relativeScore) {
+			this.text = text;
+			this.relativeScore = relativeScore;
+		}
+
+		public String getText() {
+			return text;
+		}
+
+		public double getRelativeScore() {
+			return relativeScore;
+		}
+
+		@Override
+		public String toString() {
+			return String.format("%s (%f)", text, relativeScore);
+		}
+	}
+}
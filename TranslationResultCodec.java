@@ -0,0 +1,284 @@
+package opennlp.tools.apps.translation;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import opennlp.tools.apps.translation.TranslationResult.EngineTranslation;
+import opennlp.tools.apps.translation.TranslationResult.PhraseResult;
+import opennlp.tools.apps.translation.TranslationResult.SentenceResult;
+import opennlp.tools.apps.translation.TranslationResult.Suggestion;
+
+/**
+ * Compact binary format for meaningfulness testing results.
+ * <p>
+ * File starts with a header: 4 bytes magic, 1 byte format version and 1 byte
+ * flags. The body (gzip compressed if {@link #FLAG_COMPRESSED} is set) holds
+ * a table of all distinct strings followed by the result tree, in which every
+ * string is written as a variable-length index into that table. Repeated
+ * sentences, phrases and suggestions are therefore stored once. Phrase parse
+ * trees are not stored, they are subtrees of the stored sentence ones.
+ */
+public final class TranslationResultCodec {
+
+	private static final int MAGIC = 0x50545452; // "PTTR"
+	private static final int VERSION = 1;
+	private static final int FLAG_COMPRESSED = 1;
+	private static final Charset ENCODING = Charset.forName("UTF-8");
+
+	// strings are read in chunks, so a corrupt length does not make reader
+	// allocate more than the stream really holds
+	private static final int READ_CHUNK_SIZE = 8192;
+
+	private TranslationResultCodec() {
+	}
+
+	/**
+	 * Saves result to file.
+	 *
+	 * @param result
+	 * @param file
+	 * @param compress
+	 *            whether to gzip the body
+	 * @throws IOException
+	 */
+	public static void save(TranslationResult result, File file,
+			boolean compress) throws IOException {
+		OutputStream out = new FileOutputStream(file);
+		try {
+			write(result, out, compress);
+		} finally {
+			out.close();
+		}
+	}
+
+	/**
+	 * Loads result from file.
+	 *
+	 * @param file
+	 * @return loaded result
+	 * @throws IOException
+	 *             on error or if file is not in the compact format
+	 */
+	public static TranslationResult load(File file) throws IOException {
+		InputStream in = new BufferedInputStream(new FileInputStream(file));
+		try {
+			return read(in);
+		} finally {
+			in.close();
+		}
+	}
+
+	/**
+	 * Writes result to stream. The stream is flushed but not closed.
+	 */
+	public static void write(TranslationResult result, OutputStream out,
+			boolean compress) throws IOException {
+		DataOutputStream header = new DataOutputStream(out);
+		header.writeInt(MAGIC);
+		header.writeByte(VERSION);
+		header.writeByte(compress ? FLAG_COMPRESSED : 0);
+		header.flush();
+
+		GZIPOutputStream gzip = compress ? new GZIPOutputStream(out) : null;
+		DataOutputStream body = new DataOutputStream(new BufferedOutputStream(
+				gzip != null ? gzip : out));
+		Map<String, Integer> strings = internStrings(result);
+		writeVarInt(body, strings.size());
+		for (String string : strings.keySet()) {
+			byte[] bytes = string.getBytes(ENCODING);
+			writeVarInt(body, bytes.length);
+			body.write(bytes);
+		}
+
+		writeVarInt(body, index(strings, result.getOriginalText()));
+		writeVarInt(body, result.getTranslations().size());
+		for (EngineTranslation translation : result.getTranslations()) {
+			writeVarInt(body, index(strings, translation.getEngine()));
+			writeVarInt(body, index(strings, translation.getTranslatedText()));
+			writeVarInt(body, translation.getSentences().size());
+			for (SentenceResult sentence : translation.getSentences()) {
+				writeVarInt(body, index(strings, sentence.getTranslatedSentence()));
+				writeVarInt(body, index(strings, sentence.getPennString()));
+				writeVarInt(body, sentence.getPhrases().size());
+				for (PhraseResult phrase : sentence.getPhrases()) {
+					writeVarInt(body, index(strings, phrase.getTranslatedPhrase()));
+					body.writeBoolean(phrase.isMeaningful());
+					writeVarInt(body, phrase.getSuggestions().size());
+					for (Suggestion suggestion : phrase.getSuggestions()) {
+						writeVarInt(body, index(strings, suggestion.getText()));
+						body.writeDouble(suggestion.getRelativeScore());
+					}
+				}
+			}
+		}
+		body.flush();
+		if (gzip != null) {
+			gzip.finish();
+		}
+		out.flush();
+	}
+
+	/**
+	 * Reads result from stream. The stream is not closed. Uncompressed result
+	 * is read exactly up to its end, compressed one is read up to the end of
+	 * gzip data, so its checksum and length are verified, and may be read
+	 * further, as gzip reads its input ahead.
+	 *
+	 * @throws IOException
+	 *             on error or if stream does not hold a valid result
+	 */
+	public static TranslationResult read(InputStream in) throws IOException {
+		DataInputStream header = new DataInputStream(in);
+		if (header.readInt() != MAGIC) {
+			throw new IOException("Not a compact translation result");
+		}
+		int version = header.readUnsignedByte();
+		if (version != VERSION) {
+			throw new IOException("Unsupported translation result version: "
+					+ version);
+		}
+		int flags = header.readUnsignedByte();
+
+		if ((flags & ~FLAG_COMPRESSED) != 0) {
+			throw new IOException("Unsupported translation result flags: "
+					+ flags);
+		}
+
+		// uncompressed body is not buffered to leave the stream right after it
+		DataInputStream body = (flags & FLAG_COMPRESSED) != 0 ? new DataInputStream(
+				new BufferedInputStream(new GZIPInputStream(in))) : header;
+		int stringsCount = readVarInt(body);
+		List<String> strings = new ArrayList<String>();
+		for (int i = 0; i < stringsCount; i++) {
+			strings.add(readString(body));
+		}
+
+		TranslationResult result = new TranslationResult(readIndexed(body,
+				strings));
+		int translationsCount = readVarInt(body);
+		for (int t = 0; t < translationsCount; t++) {
+			EngineTranslation translation = result.addTranslation(
+					readIndexed(body, strings), readIndexed(body, strings));
+			int sentencesCount = readVarInt(body);
+			for (int s = 0; s < sentencesCount; s++) {
+				SentenceResult sentence = translation.addSentence(
+						readIndexed(body, strings), readIndexed(body, strings));
+				int phrasesCount = readVarInt(body);
+				for (int p = 0; p < phrasesCount; p++) {
+					PhraseResult phrase = sentence.addPhrase(
+							readIndexed(body, strings), body.readBoolean());
+					int suggestionsCount = readVarInt(body);
+					for (int i = 0; i < suggestionsCount; i++) {
+						phrase.addSuggestion(readIndexed(body, strings),
+								body.readDouble());
+					}
+				}
+			}
+		}
+		if (body != header && body.read() != -1) {
+			throw new IOException(
+					"Unexpected data after compressed translation result");
+		}
+		return result;
+	}
+
+	private static String readString(DataInputStream in) throws IOException {
+		int length = readVarInt(in);
+		byte[] bytes = new byte[Math.min(length, READ_CHUNK_SIZE)];
+		int read = 0;
+		while (read < length) {
+			if (read == bytes.length) {
+				byte[] grown = new byte[Math.min(length,
+						bytes.length * 2)];
+				System.arraycopy(bytes, 0, grown, 0, read);
+				bytes = grown;
+			}
+			in.readFully(bytes, read, bytes.length - read);
+			read = bytes.length;
+		}
+		return new String(bytes, 0, length, ENCODING);
+	}
+
+	private static String readIndexed(DataInputStream in, List<String> strings)
+			throws IOException {
+		int index = readVarInt(in);
+		if (index >= strings.size()) {
+			throw new IOException("String index out of table: " + index);
+		}
+		return strings.get(index);
+	}
+
+	// Collects all distinct strings of result in order of first appearance.
+	private static Map<String, Integer> internStrings(TranslationResult result) {
+		List<String> all = new ArrayList<String>();
+		all.add(result.getOriginalText());
+		for (EngineTranslation translation : result.getTranslations()) {
+			all.add(translation.getEngine());
+			all.add(translation.getTranslatedText());
+			for (SentenceResult sentence : translation.getSentences()) {
+				all.add(sentence.getTranslatedSentence());
+				all.add(sentence.getPennString());
+				for (PhraseResult phrase : sentence.getPhrases()) {
+					all.add(phrase.getTranslatedPhrase());
+					for (Suggestion suggestion : phrase.getSuggestions()) {
+						all.add(suggestion.getText());
+					}
+				}
+			}
+		}
+		Map<String, Integer> strings = new LinkedHashMap<String, Integer>();
+		for (String string : all) {
+			if (string == null) {
+				string = "";
+			}
+			if (!strings.containsKey(string)) {
+				strings.put(string, strings.size());
+			}
+		}
+		return strings;
+	}
+
+	// null values are stored as empty strings
+	private static int index(Map<String, Integer> strings, String string) {
+		return strings.get(string != null ? string : "");
+	}
+
+	private static void writeVarInt(DataOutputStream out, int value)
+			throws IOException {
+		while ((value & ~0x7F) != 0) {
+			out.writeByte((value & 0x7F) | 0x80);
+			value >>>= 7;
+		}
+		out.writeByte(value);
+	}
+
+	private static int readVarInt(DataInputStream in) throws IOException {
+		int value = 0;
+		for (int shift = 0; shift < 32; shift += 7) {
+			int b = in.readUnsignedByte();
+			value |= (b & 0x7F) << shift;
+			if ((b & 0x80) == 0) {
+				if (value < 0) {
+					break;
+				}
+				return value;
+			}
+		}
+		throw new IOException("Malformed variable-length integer");
+	}
+}
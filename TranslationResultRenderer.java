@@ -0,0 +1,177 @@
+package opennlp.tools.apps.translation;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.StringWriter;
+import java.io.Writer;
+
+import org.json.simple.JSONArray;
+import org.json.simple.JSONObject;
+
+import opennlp.tools.apps.translation.TranslationResult.EngineTranslation;
+import opennlp.tools.apps.translation.TranslationResult.PhraseResult;
+import opennlp.tools.apps.translation.TranslationResult.SentenceResult;
+import opennlp.tools.apps.translation.TranslationResult.Suggestion;
+
+/**
+ * Renders meaningfulness testing results as HTML or JSON directly, without
+ * XSLT. Output layout follows translation.xsl. Results are already ordered by
+ * {@link TranslationResult}, so no sorting is done here.
+ */
+public final class TranslationResultRenderer {
+
+	private static final String ENCODING = "UTF-8";
+	private static final String MEANINGFUL_COLOR = "#99ff99",
+			MEANINGLESS_COLOR = "#ff9999", SENTENCE_COLOR = "#9acd32";
+
+	private TranslationResultRenderer() {
+	}
+
+	public static void saveAsHtml(TranslationResult result, File file)
+			throws IOException {
+		Writer out = new OutputStreamWriter(new FileOutputStream(file),
+				ENCODING);
+		try {
+			writeHtml(result, out);
+		} finally {
+			out.close();
+		}
+	}
+
+	public static void saveAsJson(TranslationResult result, File file)
+			throws IOException {
+		Writer out = new OutputStreamWriter(new FileOutputStream(file),
+				ENCODING);
+		try {
+			toJson(result).writeJSONString(out);
+		} finally {
+			out.close();
+		}
+	}
+
+	public static String toHtml(TranslationResult result) {
+		StringWriter out = new StringWriter();
+		try {
+			writeHtml(result, out);
+		} catch (IOException e) {
+			// StringWriter never throws
+			throw new IllegalStateException(e);
+		}
+		return out.toString();
+	}
+
+	public static void writeHtml(TranslationResult result, Writer out)
+			throws IOException {
+		out.write("<html>\n<head>\n<meta charset=\"" + ENCODING + "\"/>\n");
+		out.write("<style>\n  td:not(.penn), p{\n    font-size: 120%;\n  }\n</style>\n");
+		out.write("</head>\n<body>\n<h3>Original text</h3>\n<p>");
+		escape(result.getOriginalText(), out);
+		out.write("</p>\n");
+		for (EngineTranslation translation : result.getTranslations()) {
+			out.write("<h3>Translator engine: ");
+			escape(translation.getEngine(), out);
+			out.write("</h3>\n<p>");
+			escape(translation.getTranslatedText(), out);
+			out.write("</p>\n");
+			for (SentenceResult sentence : translation.getSentences()) {
+				out.write("<table border=\"1\">\n<tr bgcolor=\"" + SENTENCE_COLOR
+						+ "\"><td colspan=\"2\"><b>");
+				escape(sentence.getTranslatedSentence(), out);
+				out.write("</b></td></tr>\n<tr><td colspan=\"2\" class=\"penn\"><pre>");
+				escape(sentence.getPennString(), out);
+				out.write("</pre></td></tr>\n<tr><td colspan=\"2\">&#160;</td></tr>\n");
+				for (PhraseResult phrase : sentence.getPhrases()) {
+					String color = phrase.isMeaningful() ? MEANINGFUL_COLOR
+							: MEANINGLESS_COLOR;
+					out.write("<tr><td bgcolor=\"" + color + "\"><b>");
+					escape(phrase.getTranslatedPhrase(), out);
+					out.write("</b></td><td bgcolor=\"" + color + "\">");
+					out.write(phrase.isMeaningful() ? "Meaningful" : "Meaningless");
+					out.write("</td></tr>\n");
+					for (Suggestion suggestion : phrase.getSuggestions()) {
+						out.write("<tr><td>");
+						escape(suggestion.getText(), out);
+						out.write("</td><td>");
+						out.write(Double.toString(suggestion.getRelativeScore()));
+						out.write("</td></tr>\n");
+					}
+					out.write("<tr><td>&#160;</td><td>&#160;</td></tr>\n");
+				}
+				out.write("</table>\n");
+			}
+		}
+		out.write("</body>\n</html>\n");
+		out.flush();
+	}
+
+	@SuppressWarnings("unchecked")
+	public static JSONObject toJson(TranslationResult result) {
+		JSONObject json = new JSONObject();
+		json.put("original-text", result.getOriginalText());
+		JSONArray translations = new JSONArray();
+		for (EngineTranslation translation : result.getTranslations()) {
+			JSONObject translationJson = new JSONObject();
+			translationJson.put("engine", translation.getEngine());
+			translationJson.put("translated-text",
+					translation.getTranslatedText());
+			JSONArray sentences = new JSONArray();
+			for (SentenceResult sentence : translation.getSentences()) {
+				JSONObject sentenceJson = new JSONObject();
+				sentenceJson.put("translated-sentence",
+						sentence.getTranslatedSentence());
+				sentenceJson.put("sentence-penn-string",
+						sentence.getPennString());
+				JSONArray phrases = new JSONArray();
+				for (PhraseResult phrase : sentence.getPhrases()) {
+					JSONObject phraseJson = new JSONObject();
+					phraseJson.put("translated-phrase",
+							phrase.getTranslatedPhrase());
+					phraseJson.put("meaningful", phrase.isMeaningful());
+					JSONArray suggestions = new JSONArray();
+					for (Suggestion suggestion : phrase.getSuggestions()) {
+						JSONObject suggestionJson = new JSONObject();
+						suggestionJson.put("text", suggestion.getText());
+						suggestionJson.put("relative-score",
+								suggestion.getRelativeScore());
+						suggestions.add(suggestionJson);
+					}
+					phraseJson.put("suggestions", suggestions);
+					phrases.add(phraseJson);
+				}
+				sentenceJson.put("phrases", phrases);
+				sentences.add(sentenceJson);
+			}
+			translationJson.put("sentences", sentences);
+			translations.add(translationJson);
+		}
+		json.put("translations", translations);
+		return json;
+	}
+
+	private static void escape(String text, Writer out) throws IOException {
+		if (text == null) {
+			return;
+		}
+		for (int i = 0; i < text.length(); i++) {
+			char c = text.charAt(i);
+			switch (c) {
+			case '<':
+				out.write("&lt;");
+				break;
+			case '>':
+				out.write("&gt;");
+				break;
+			case '&':
+				out.write("&amp;");
+				break;
+			case '"':
+				out.write("&quot;");
+				break;
+			default:
+				out.write(c);
+			}
+		}
+	}
+}
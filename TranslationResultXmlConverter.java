@@ -0,0 +1,237 @@
+package opennlp.tools.apps.translation;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.transform.Transformer;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.dom.DOMSource;
+import javax.xml.transform.stream.StreamResult;
+
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.w3c.dom.ProcessingInstruction;
+
+import opennlp.tools.apps.translation.TranslationResult.EngineTranslation;
+import opennlp.tools.apps.translation.TranslationResult.PhraseResult;
+import opennlp.tools.apps.translation.TranslationResult.SentenceResult;
+import opennlp.tools.apps.translation.TranslationResult.Suggestion;
+
+/**
+ * Converts meaningfulness testing results between XML rendered with
+ * translation.xsl and {@link TranslationResult}, so that old XML reports can
+ * be read and converted to the compact format, HTML or JSON.
+ */
+public final class TranslationResultXmlConverter {
+
+	private TranslationResultXmlConverter() {
+	}
+
+	/**
+	 * Reads XML report. Both the current layout and the old one, in which
+	 * translated-text followed its translation element, are accepted.
+	 * phrase-penn-string elements of old reports are skipped.
+	 * <p>
+	 * Phrases are ordered by ascending length and suggestions by descending
+	 * score, see {@link TranslationResult}. This differs from the order
+	 * translation.xsl shows old reports in: its phrase sort key is missing in
+	 * phrase elements, so phrases are shown in document order, and scores
+	 * are sorted as text rather than as numbers.
+	 * <p>
+	 * Reports with DTD are rejected and external entities are not resolved.
+	 *
+	 * @param file
+	 *            XML report
+	 * @return results ordered by {@link TranslationResult}
+	 * @throws Exception
+	 *             on parse error
+	 */
+	public static TranslationResult fromXml(File file) throws Exception {
+		DocumentBuilderFactory docFactory = DocumentBuilderFactory
+				.newInstance();
+		docFactory.setFeature(
+				"http://apache.org/xml/features/disallow-doctype-decl", true);
+		docFactory.setFeature(
+				"http://xml.org/sax/features/external-general-entities", false);
+		docFactory.setFeature(
+				"http://xml.org/sax/features/external-parameter-entities",
+				false);
+		docFactory.setXIncludeAware(false);
+		docFactory.setExpandEntityReferences(false);
+		DocumentBuilder docBuilder = docFactory.newDocumentBuilder();
+		Element root = docBuilder.parse(file).getDocumentElement();
+		TranslationResult result = new TranslationResult(childText(root,
+				"original-text"));
+		for (Element translationElement : childElements(root)) {
+			if (!translationElement.getTagName().equals("translation")) {
+				continue;
+			}
+			String translatedText = childText(translationElement,
+					"translated-text");
+			if (translatedText == null) {
+				Element next = nextElement(translationElement);
+				if (next != null
+						&& next.getTagName().equals("translated-text")) {
+					translatedText = next.getTextContent();
+				}
+			}
+			EngineTranslation translation = result.addTranslation(
+					translationElement.getAttribute("engine"), translatedText);
+			for (Element sentenceElement : childElements(translationElement)) {
+				if (sentenceElement.getTagName().equals("sentence")) {
+					readSentence(sentenceElement, translation);
+				}
+			}
+		}
+		return result;
+	}
+
+	private static void readSentence(Element sentenceElement,
+			EngineTranslation translation) {
+		SentenceResult sentence = translation.addSentence(
+				childText(sentenceElement, "translated-sentence"),
+				childText(sentenceElement, "sentence-penn-string"));
+		for (Element phraseElement : childElements(sentenceElement)) {
+			if (!phraseElement.getTagName().equals("phrase")) {
+				continue;
+			}
+			PhraseResult phrase = sentence.addPhrase(
+					childText(phraseElement, "translated-phrase"),
+					"1".equals(phraseElement.getAttribute("meaningful")));
+			for (Element suggestionElement : childElements(phraseElement)) {
+				if (suggestionElement.getTagName().equals("suggestion")) {
+					phrase.addSuggestion(suggestionElement.getTextContent(),
+							Double.parseDouble(suggestionElement
+									.getAttribute("relative-score")));
+				}
+			}
+		}
+	}
+
+	/**
+	 * Saves results as XML report referencing translation.xsl.
+	 *
+	 * @param result
+	 * @param file
+	 * @throws Exception
+	 */
+	public static void toXml(TranslationResult result, File file)
+			throws Exception {
+		DocumentBuilderFactory docFactory = DocumentBuilderFactory
+				.newInstance();
+		DocumentBuilder docBuilder = docFactory.newDocumentBuilder();
+		Document doc = docBuilder.newDocument();
+		Element textTranslationElement = doc.createElement("text-translation");
+		appendTextElement(textTranslationElement, "original-text",
+				result.getOriginalText());
+		doc.appendChild(textTranslationElement);
+		ProcessingInstruction pi = doc.createProcessingInstruction(
+				"xml-stylesheet", "type=\"text/xsl\" href=\"translation.xsl\"");
+		doc.insertBefore(pi, textTranslationElement);
+
+		for (EngineTranslation translation : result.getTranslations()) {
+			Element translationElement = doc.createElement("translation");
+			translationElement.setAttribute("engine", translation.getEngine());
+			textTranslationElement.appendChild(translationElement);
+			appendTextElement(translationElement, "translated-text",
+					translation.getTranslatedText());
+			for (SentenceResult sentence : translation.getSentences()) {
+				Element sentenceElement = doc.createElement("sentence");
+				translationElement.appendChild(sentenceElement);
+				appendTextElement(sentenceElement, "translated-sentence",
+						sentence.getTranslatedSentence());
+				appendTextElement(sentenceElement, "sentence-penn-string",
+						sentence.getPennString());
+				for (PhraseResult phrase : sentence.getPhrases()) {
+					Element phraseElement = doc.createElement("phrase");
+					sentenceElement.appendChild(phraseElement);
+					phraseElement.setAttribute("meaningful",
+							phrase.isMeaningful() ? "1" : "0");
+					appendTextElement(phraseElement, "translated-phrase",
+							phrase.getTranslatedPhrase());
+					for (Suggestion suggestion : phrase.getSuggestions()) {
+						Element suggestionElement = appendTextElement(
+								phraseElement, "suggestion",
+								suggestion.getText());
+						suggestionElement.setAttribute("relative-score",
+								Double.toString(suggestion.getRelativeScore()));
+					}
+				}
+			}
+		}
+		TransformerFactory transformerFactory = TransformerFactory
+				.newInstance();
+		Transformer transformer = transformerFactory.newTransformer();
+		DOMSource source = new DOMSource(doc);
+		StreamResult streamResult = new StreamResult(file);
+		transformer.transform(source, streamResult);
+	}
+
+	private static Element appendTextElement(Element parent, String tagName,
+			String text) {
+		Document doc = parent.getOwnerDocument();
+		Element element = doc.createElement(tagName);
+		element.appendChild(doc.createTextNode(text != null ? text : ""));
+		parent.appendChild(element);
+		return element;
+	}
+
+	private static List<Element> childElements(Element parent) {
+		List<Element> elements = new ArrayList<Element>();
+		for (Node node = parent.getFirstChild(); node != null; node = node
+				.getNextSibling()) {
+			if (node.getNodeType() == Node.ELEMENT_NODE) {
+				elements.add((Element) node);
+			}
+		}
+		return elements;
+	}
+
+	private static String childText(Element parent, String tagName) {
+		for (Element child : childElements(parent)) {
+			if (child.getTagName().equals(tagName)) {
+				return child.getTextContent();
+			}
+		}
+		return null;
+	}
+
+	private static Element nextElement(Element element) {
+		for (Node node = element.getNextSibling(); node != null; node = node
+				.getNextSibling()) {
+			if (node.getNodeType() == Node.ELEMENT_NODE) {
+				return (Element) node;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Converts an XML report to the compact format, HTML or JSON depending on
+	 * the output file extension.
+	 *
+	 * @param args
+	 *            input XML file and output file (.ptr, .ptr.gz, .html or
+	 *            .json)
+	 */
+	public static void main(String[] args) throws Exception {
+		if (args.length != 2) {
+			System.err.println("Usage: TranslationResultXmlConverter <report.xml> <output.ptr|output.ptr.gz|output.html|output.json>");
+			System.exit(1);
+		}
+		TranslationResult result = fromXml(new File(args[0]));
+		File output = new File(args[1]);
+		String name = output.getName();
+		if (name.endsWith(".html")) {
+			TranslationResultRenderer.saveAsHtml(result, output);
+		} else if (name.endsWith(".json")) {
+			TranslationResultRenderer.saveAsJson(result, output);
+		} else {
+			TranslationResultCodec.save(result, output, name.endsWith(".gz"));
+		}
+	}
+}
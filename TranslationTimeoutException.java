@@ -0,0 +1,13 @@
+package opennlp.tools.apps.translation;
+
+/**
+ * Signals that translation was not completed in the given time.
+ */
+public class TranslationTimeoutException extends TranslationException {
+
+	private static final long serialVersionUID = 1L;
+
+	public TranslationTimeoutException(String engineName, String message) {
+		super(engineName, message);
+	}
+}
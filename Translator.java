@@ -1,10 +1,38 @@
 package opennlp.tools.apps.translation;
 
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
 /**
  * Abstract adapter class for some machine translation service.
+ * <p>
+ * Asynchronous methods run blocking translations on a shared bounded pool by
+ * default. Engines with a non-blocking client should override them.
  * @author Alex Loptev
  */
 public abstract class Translator {
+
+	/**
+	 * Code of the language texts are translated to.
+	 */
+	public static final String TARGET_LANGUAGE = "en";
+
+	// number of threads for engines which have only blocking client libraries
+	private static final int BLOCKING_TRANSLATIONS_THREADS = 16;
+	private static final ExecutorService blockingTranslationsExecutor = Executors
+			.newFixedThreadPool(BLOCKING_TRANSLATIONS_THREADS,
+					daemonThreadFactory("translator-blocking"));
+	private static final ScheduledExecutorService timeoutScheduler = Executors
+			.newSingleThreadScheduledExecutor(daemonThreadFactory("translator-timeout"));
 		
 	/**
 	 * Execute simple sentence translation to English
@@ -25,11 +53,188 @@ public abstract class Translator {
 	 */
 	public abstract String translate(String text, String fromLanguage, String toLanguage) throws Exception;
 	
+	/**
+	 * Execute simple sentence translation to English when sentence native
+	 * language is already known, e.g. identified once for the whole document.
+	 * Sentences already in English are returned as is without calling the
+	 * translation service.
+	 * @param text
+	 * @param	fromLanguage	sentence native language or null for auto detection
+	 * @return translatedText
+	 * @throws Exception 
+	 */
+	public String translate(String text, String fromLanguage) throws Exception {
+		if (fromLanguage == null) {
+			return translate(text);
+		}
+		if (fromLanguage.equals(TARGET_LANGUAGE)) {
+			return text;
+		}
+		return translate(text, fromLanguage, TARGET_LANGUAGE);
+	}
+	
 	/**
 	 * Returns translation engine name.
 	 * @return engine name
 	 */
 	public abstract String getEngineName();
-	
-	
+
+	/**
+	 * Asynchronous version of {@link #translate(String)}. Future completes
+	 * exceptionally with {@link TranslationException} on error. Cancelling
+	 * the future interrupts the thread running the translation.
+	 * @param text
+	 * @return future translatedText
+	 */
+	public CompletableFuture<String> translateAsync(final String text) {
+		return supplyBlocking(() -> translate(text));
+	}
+
+	/**
+	 * Asynchronous version of {@link #translate(String, String, String)}.
+	 * Future completes exceptionally with {@link TranslationException} on
+	 * error. Cancelling the future interrupts the thread running the
+	 * translation.
+	 * @param text
+	 * @param	fromLanguage	sentence native language
+	 * @param	toLanguage	sentence destination language
+	 * @return future translatedText
+	 */
+	public CompletableFuture<String> translateAsync(final String text,
+			final String fromLanguage, final String toLanguage) {
+		return supplyBlocking(() -> translate(text, fromLanguage, toLanguage));
+	}
+
+	/**
+	 * Asynchronous version of {@link #translate(String, String)}. Sentences
+	 * already in English are returned as is without calling the translation
+	 * service.
+	 * @param text
+	 * @param	fromLanguage	sentence native language or null for auto detection
+	 * @return future translatedText
+	 */
+	public CompletableFuture<String> translateAsync(String text,
+			String fromLanguage) {
+		if (fromLanguage == null) {
+			return translateAsync(text);
+		}
+		if (fromLanguage.equals(TARGET_LANGUAGE)) {
+			return CompletableFuture.completedFuture(text);
+		}
+		return translateAsync(text, fromLanguage, TARGET_LANGUAGE);
+	}
+
+	/**
+	 * Asynchronous translation to English which is aborted and completed
+	 * with {@link TranslationTimeoutException} if not done in time.
+	 * @param text
+	 * @param timeout
+	 * @param unit
+	 * @return future translatedText
+	 */
+	public CompletableFuture<String> translateAsync(String text, long timeout,
+			TimeUnit unit) {
+		return withTimeout(translateAsync(text), timeout, unit);
+	}
+
+	/**
+	 * Asynchronous translation to English from known language which is
+	 * aborted and completed with {@link TranslationTimeoutException} if not
+	 * done in time. Sentences already in English are returned as is without
+	 * calling the translation service.
+	 * @param text
+	 * @param	fromLanguage	sentence native language or null for auto detection
+	 * @param timeout
+	 * @param unit
+	 * @return future translatedText
+	 */
+	public CompletableFuture<String> translateAsync(String text,
+			String fromLanguage, long timeout, TimeUnit unit) {
+		return withTimeout(translateAsync(text, fromLanguage), timeout, unit);
+	}
+
+	/**
+	 * Asynchronous translation which is aborted and completed with
+	 * {@link TranslationTimeoutException} if not done in time.
+	 * @param text
+	 * @param	fromLanguage	sentence native language
+	 * @param	toLanguage	sentence destination language
+	 * @param timeout
+	 * @param unit
+	 * @return future translatedText
+	 */
+	public CompletableFuture<String> translateAsync(String text,
+			String fromLanguage, String toLanguage, long timeout, TimeUnit unit) {
+		return withTimeout(translateAsync(text, fromLanguage, toLanguage),
+				timeout, unit);
+	}
+
+	/**
+	 * Runs blocking translation on the shared pool. The running translation
+	 * is interrupted if returned future is completed first, e.g. cancelled or
+	 * timed out.
+	 */
+	protected final CompletableFuture<String> supplyBlocking(
+			final Callable<String> translation) {
+		final CompletableFuture<String> future = new CompletableFuture<String>();
+		final Future<?> task = blockingTranslationsExecutor.submit(() -> {
+			try {
+				future.complete(translation.call());
+			} catch (Throwable e) {
+				future.completeExceptionally(translationFailure(e));
+			}
+		});
+		future.whenComplete((translatedText, error) -> {
+			// on normal completion the task is the one completing the future
+			if (error != null) {
+				task.cancel(true);
+			}
+		});
+		return future;
+	}
+
+	/**
+	 * Completes future with {@link TranslationTimeoutException} if it is not
+	 * done in the given time.
+	 */
+	protected final CompletableFuture<String> withTimeout(
+			final CompletableFuture<String> future, final long timeout,
+			final TimeUnit unit) {
+		final ScheduledFuture<?> timer = timeoutScheduler.schedule(
+				() -> future.completeExceptionally(new TranslationTimeoutException(
+						getEngineName(), String.format(
+								"Translation is not done in %d %s", timeout,
+								unit.toString().toLowerCase()))), timeout, unit);
+		future.whenComplete((translatedText, error) -> timer.cancel(false));
+		return future;
+	}
+
+	/**
+	 * Wraps error of this engine into {@link TranslationException}.
+	 */
+	protected final Throwable translationFailure(Throwable error) {
+		if (error instanceof TranslationException
+				|| error instanceof CancellationException) {
+			return error;
+		}
+		if (error instanceof InterruptedException) {
+			Thread.currentThread().interrupt();
+		}
+		return new TranslationException(getEngineName(),
+				String.valueOf(error.getMessage()), error);
+	}
+
+	private static ThreadFactory daemonThreadFactory(final String namePrefix) {
+		return new ThreadFactory() {
+			private final AtomicInteger counter = new AtomicInteger();
+
+			@Override
+			public Thread newThread(Runnable runnable) {
+				Thread thread = new Thread(runnable, namePrefix + "-"
+						+ counter.incrementAndGet());
+				thread.setDaemon(true);
+				return thread;
+			}
+		};
+	}
 }
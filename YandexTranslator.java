@@ -22,8 +22,16 @@ public class YandexTranslator extends Translator {
 		Translate.setKey(apiKey);
 	}
 	
+	/**
+	 * Identifies text language locally and calls the remote detection
+	 * service only if local identification fails.
+	 */
 	@Override
 	public String translate(String text) throws Exception {
+		String fromLanguage = LanguageIdentifier.getInstance().identify(text);
+		if (fromLanguage != null) {
+			return translate(text, fromLanguage);
+		}
 		return translate(text, Detect.execute(text), Language.ENGLISH);
 	}
 	